@@ -1,8 +1,10 @@
 package metricsbench;
 
+import metricsbench.util.CounterArray;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -15,20 +17,76 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 
 public class Counters {
 
+    static final int N_COUNTERS = 64;
+    static final int BATCH_SIZE = 1024;
+    // A power of two, so the cursors wrap with a mask.
+    static final int DATA_SIZE = 1 << 20;
+
+    @State(Scope.Thread)
+    public static class Data {
+
+        int[] counterIndexes;
+        long[] counts;
+        int cursor;
+        int batchOffset;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            final Random r = new Random(1234567891L);
+            counterIndexes = r.ints(DATA_SIZE, 0, N_COUNTERS).toArray();
+            counts = new long[N_COUNTERS];
+            cursor = 0;
+            batchOffset = 0;
+        }
+
+        int nextIndex() {
+            int i = counterIndexes[cursor];
+            cursor = (cursor + 1) & (DATA_SIZE - 1);
+            return i;
+        }
+
+        int nextBatch() {
+            int off = batchOffset;
+            batchOffset = (off + BATCH_SIZE) & (DATA_SIZE - 1);
+            return off;
+        }
+
+        /**
+         * Tallies the next batch and hands each touched counter's total to its sink, one call per touched counter.
+         */
+        void applyNextBatch(LongConsumer[] sinks) {
+            CounterArray.tally(counterIndexes, nextBatch(), BATCH_SIZE, counts);
+            for (int i = 0; i < N_COUNTERS; i++) {
+                if (counts[i] != 0) {
+                    sinks[i].accept(counts[i]);
+                    counts[i] = 0;
+                }
+            }
+        }
+    }
+
     @State(Scope.Benchmark)
     public static class DropwizardState {
 
         com.codahale.metrics.MetricRegistry registry;
         com.codahale.metrics.Counter counter;
+        com.codahale.metrics.Counter[] counters = new com.codahale.metrics.Counter[N_COUNTERS];
+        LongConsumer[] sinks = new LongConsumer[N_COUNTERS];
 
         @Setup(Level.Trial)
         public void setup() {
             registry = new com.codahale.metrics.MetricRegistry();
             counter = registry.counter("counter");
+            for (int i = 0; i < N_COUNTERS; i++) {
+                counters[i] = registry.counter("counter." + i);
+                sinks[i] = counters[i]::inc;
+            }
         }
 
         @TearDown(Level.Trial)
@@ -43,12 +101,18 @@ public class Counters {
         io.micrometer.core.instrument.MeterRegistry registry;
         io.micrometer.core.instrument.Counter counter;
         io.micrometer.core.instrument.Counter counterWithTags;
+        io.micrometer.core.instrument.Counter[] counters = new io.micrometer.core.instrument.Counter[N_COUNTERS];
+        LongConsumer[] sinks = new LongConsumer[N_COUNTERS];
 
         @Setup(Level.Trial)
         public void setup() {
             registry = new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
             counter = registry.counter("untagged");
             counterWithTags = registry.counter("tagged", "key1", "value1", "key2", "value2");
+            for (int i = 0; i < N_COUNTERS; i++) {
+                counters[i] = registry.counter("batched", "id", Integer.toString(i));
+                sinks[i] = counters[i]::increment;
+            }
         }
 
         @TearDown(Level.Trial)
@@ -67,6 +131,8 @@ public class Counters {
         io.dropwizard.metrics5.MetricRegistry registry;
         io.dropwizard.metrics5.Counter counter;
         io.dropwizard.metrics5.Counter counterWithTags;
+        io.dropwizard.metrics5.Counter[] counters = new io.dropwizard.metrics5.Counter[N_COUNTERS];
+        LongConsumer[] sinks = new LongConsumer[N_COUNTERS];
 
         @Setup(Level.Trial)
         public void setup() {
@@ -75,6 +141,11 @@ public class Counters {
             counterWithTags =
                 registry.counter(
                     new io.dropwizard.metrics5.MetricName("tagged", Map.of("key1", "value1", "key2", "value2")));
+            for (int i = 0; i < N_COUNTERS; i++) {
+                counters[i] = registry.counter(
+                    new io.dropwizard.metrics5.MetricName("batched", Map.of("id", Integer.toString(i))));
+                sinks[i] = counters[i]::inc;
+            }
         }
 
         @TearDown(Level.Trial)
@@ -89,11 +160,37 @@ public class Counters {
     public static class PrometheusState {
         io.prometheus.client.Counter counter;
         io.prometheus.client.Counter counterWithTags;
+        io.prometheus.client.Counter.Child[] counters = new io.prometheus.client.Counter.Child[N_COUNTERS];
+        LongConsumer[] sinks = new LongConsumer[N_COUNTERS];
 
         @Setup(Level.Trial)
         public void setup() {
             counter = io.prometheus.client.Counter.build().name("counter").help("A counter").create();
             counterWithTags = io.prometheus.client.Counter.build().name("counter").help("Counter with two tags declared").labelNames("key1", "key2").create();
+            io.prometheus.client.Counter batched =
+                io.prometheus.client.Counter.build().name("batched").help("Counters for batch updates").labelNames("id").create();
+            for (int i = 0; i < N_COUNTERS; i++) {
+                counters[i] = batched.labels(Integer.toString(i));
+                sinks[i] = counters[i]::inc;
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CounterArrayState {
+
+        CounterArray counters;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            counters = new CounterArray(N_COUNTERS);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown(Blackhole hole) {
+            for (int i = 0; i < counters.size(); i++) {
+                hole.consume(counters.get(i));
+            }
         }
     }
 
@@ -143,6 +240,44 @@ public class Counters {
         state.counterWithTags.labels("value1", "value2").inc();
     }
 
+    @Benchmark
+    public void counterArray(CounterArrayState state, Data data) {
+        state.counters.increment(data.nextIndex());
+    }
+
+    // The batch benchmarks tally a batch of counter indexes locally and then apply one increment per touched
+    // counter. They are normalized per index so they line up with the single-increment ones above.
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void dropwizardCounterBatch(DropwizardState state, Data data) {
+        data.applyNextBatch(state.sinks);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void dropwizard5CounterBatch(Dropwizard5State state, Data data) {
+        data.applyNextBatch(state.sinks);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void micrometerCounterBatch(MicrometerState state, Data data) {
+        data.applyNextBatch(state.sinks);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void prometheusCounterBatch(PrometheusState state, Data data) {
+        data.applyNextBatch(state.sinks);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void counterArrayBatch(CounterArrayState state, Data data) {
+        state.counters.incrementBy(data.counterIndexes, data.nextBatch(), BATCH_SIZE);
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
             .include(Counters.class.getSimpleName())
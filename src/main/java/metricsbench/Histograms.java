@@ -4,13 +4,17 @@ import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.SlidingTimeWindowReservoir;
 import com.codahale.metrics.UniformReservoir;
-import com.google.common.collect.Iterators;
 import com.google.common.primitives.Doubles;
 import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.core.instrument.distribution.PercentileHistogramBuckets;
+import metricsbench.util.BucketedHistogram;
+import metricsbench.workload.Distribution;
+import metricsbench.workload.Workload;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -21,25 +25,38 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
-import java.util.Iterator;
-import java.util.Random;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class Histograms {
 
+    static final int BATCH_SIZE = 1024;
+
     @State(Scope.Thread)
     public static class Data {
 
-        Iterator<Long> dataIterator;
+        @Param({"LOGNORMAL", "BIMODAL", "PARETO", "CONSTANT"})
+        Distribution distribution;
 
-        @Setup(Level.Iteration)
+        Workload workload;
+        long[] values;
+
+        @Setup(Level.Trial)
         public void setup() {
-            final Random r = new Random(1234567891L);
-            dataIterator = Iterators.cycle(
-                Stream.generate(() -> Math.round(Math.exp(2.0 + r.nextGaussian()))).limit(1048576)
-                    .collect(Collectors.toList()));
+            workload = Workload.of(distribution);
+            values = workload.values();
+        }
+
+        @Setup(Level.Iteration)
+        public void rewind() {
+            workload.rewind();
+        }
+
+        long next() {
+            return workload.next();
+        }
+
+        int nextBatch() {
+            return workload.nextBatch(BATCH_SIZE);
         }
     }
 
@@ -96,12 +113,8 @@ public class Histograms {
 
         @Setup(Level.Trial)
         public void setup() {
-            double[] micrometerBuckets =
-                Doubles.toArray(PercentileHistogramBuckets.buckets(
-                    DistributionStatisticConfig.builder().minimumExpectedValue(0L).maximumExpectedValue(Long.MAX_VALUE)
-                        .percentilesHistogram(true).build()));
             histogram = io.prometheus.client.Histogram.build("histogram", "A histogram")
-                .buckets(micrometerBuckets).create();
+                .buckets(micrometerBuckets()).create();
         }
 
         @TearDown(Level.Iteration)
@@ -110,30 +123,106 @@ public class Histograms {
         }
     }
 
+    @State(Scope.Benchmark)
+    public static class BucketedState {
+
+        BucketedHistogram histogram;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            double[] buckets = micrometerBuckets();
+            long[] bounds = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                bounds[i] = (long) buckets[i];
+            }
+            histogram = new BucketedHistogram(bounds);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(Blackhole hole) {
+            hole.consume(histogram.bucketCounts());
+        }
+    }
+
+    static double[] micrometerBuckets() {
+        return Doubles.toArray(PercentileHistogramBuckets.buckets(
+            DistributionStatisticConfig.builder().minimumExpectedValue(0L).maximumExpectedValue(Long.MAX_VALUE)
+                .percentilesHistogram(true).build()));
+    }
+
     @Benchmark
     public void micrometerHistogram(MicrometerState state, Data data) {
-        state.summary.record(data.dataIterator.next());
+        state.summary.record(data.next());
     }
 
     @Benchmark
     public void dropwizardHistogram(DropwizardState state, Data data) {
-        state.histogram.update(data.dataIterator.next());
+        state.histogram.update(data.next());
     }
 
     // This benchmark is likely broken, results vary wildly between runs.
     @Benchmark
     public void dropwizardHistogramSlidingTimeWindow(DropwizardState state, Data data) {
-        state.histogramSlidingTimeWindow.update(data.dataIterator.next());
+        state.histogramSlidingTimeWindow.update(data.next());
     }
 
     @Benchmark
     public void dropwizardHistogramUniform(DropwizardState state, Data data) {
-        state.histogramUniform.update(data.dataIterator.next());
+        state.histogramUniform.update(data.next());
     }
 
     @Benchmark
     public void prometheusHistogram(PrometheusState state, Data data) {
-        state.histogram.observe(data.dataIterator.next());
+        state.histogram.observe(data.next());
+    }
+
+    @Benchmark
+    public void bucketedHistogram(BucketedState state, Data data) {
+        state.histogram.update(data.next());
+    }
+
+    // The batch benchmarks are normalized per value so they line up with the single-value ones above.
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void micrometerHistogramBatch(MicrometerState state, Data data) {
+        long[] values = data.values;
+        for (int i = data.nextBatch(), end = i + BATCH_SIZE; i < end; i++) {
+            state.summary.record(values[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void dropwizardHistogramBatch(DropwizardState state, Data data) {
+        long[] values = data.values;
+        for (int i = data.nextBatch(), end = i + BATCH_SIZE; i < end; i++) {
+            state.histogram.update(values[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void dropwizardHistogramUniformBatch(DropwizardState state, Data data) {
+        long[] values = data.values;
+        for (int i = data.nextBatch(), end = i + BATCH_SIZE; i < end; i++) {
+            state.histogramUniform.update(values[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void prometheusHistogramBatch(PrometheusState state, Data data) {
+        long[] values = data.values;
+        for (int i = data.nextBatch(), end = i + BATCH_SIZE; i < end; i++) {
+            state.histogram.observe(values[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void bucketedHistogramBatch(BucketedState state, Data data) {
+        state.histogram.recordAll(data.values, data.nextBatch(), BATCH_SIZE);
     }
 
     public static void main(String[] args) throws RunnerException {
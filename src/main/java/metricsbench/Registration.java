@@ -0,0 +1,169 @@
+package metricsbench;
+
+import metricsbench.util.MeterIndex;
+import metricsbench.util.MeterSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold registration of N counters per library, the way the apps register theirs at startup. Each fork is a fresh JVM
+ * that measures a single registration into a fresh registry, so no score includes code the JIT already compiled for
+ * an earlier run. The tag values are prebuilt so only registration is measured.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class Registration {
+
+    @State(Scope.Thread)
+    public static class Data {
+
+        @Param({"1000", "10000", "100000"})
+        int n;
+
+        String[] ids;
+        String[] dottedNames;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            ids = new String[n];
+            dottedNames = new String[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = Integer.toString(i);
+                dottedNames[i] = "counter." + i;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DropwizardState {
+
+        com.codahale.metrics.MetricRegistry registry;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            registry = new com.codahale.metrics.MetricRegistry();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Dropwizard5State {
+
+        io.dropwizard.metrics5.MetricRegistry registry;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            registry = new io.dropwizard.metrics5.MetricRegistry();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Dropwizard5MetricSetState {
+
+        io.dropwizard.metrics5.MetricRegistry registry;
+        io.dropwizard.metrics5.MetricSet metrics;
+
+        @Setup(Level.Iteration)
+        public void setup(Data data) {
+            registry = new io.dropwizard.metrics5.MetricRegistry();
+            metrics = new MeterSchema().counters("counter", "id", data.ids).toMetricSet();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MicrometerState {
+
+        io.micrometer.core.instrument.MeterRegistry registry;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            registry = new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PrometheusState {
+
+        io.prometheus.client.CollectorRegistry registry;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            registry = new io.prometheus.client.CollectorRegistry();
+        }
+    }
+
+    @Benchmark
+    public Object dropwizardRegister(DropwizardState state, Data data) {
+        for (int i = 0; i < data.n; i++) {
+            state.registry.counter(data.dottedNames[i]);
+        }
+        return state.registry;
+    }
+
+    @Benchmark
+    public Object dropwizard5Register(Dropwizard5State state, Data data) {
+        for (int i = 0; i < data.n; i++) {
+            state.registry.counter(new io.dropwizard.metrics5.MetricName("counter", Map.of("id", data.ids[i])));
+        }
+        return state.registry;
+    }
+
+    // The MetricSet is prebuilt, so this times registerAll alone. It is not a bulk path: metrics5 registerAll calls
+    // register once per metric, so it shows what handing over prebuilt meters saves, not a cheaper registry insert.
+    @Benchmark
+    public Object dropwizard5RegisterAll(Dropwizard5MetricSetState state) {
+        state.registry.registerAll(state.metrics);
+        return state.registry;
+    }
+
+    @Benchmark
+    public Object micrometerRegister(MicrometerState state, Data data) {
+        for (int i = 0; i < data.n; i++) {
+            state.registry.counter("counter", "id", data.ids[i]);
+        }
+        return state.registry;
+    }
+
+    @Benchmark
+    public Object prometheusRegister(PrometheusState state, Data data) {
+        io.prometheus.client.Counter counter = io.prometheus.client.Counter.build()
+            .name("counter").help("A counter").labelNames("id").register(state.registry);
+        for (int i = 0; i < data.n; i++) {
+            counter.labels(data.ids[i]);
+        }
+        return state.registry;
+    }
+
+    // Declaring the schema is timed too, just as the other benchmarks pay for their names and tags.
+    @Benchmark
+    public MeterIndex schemaPreregister(Data data) {
+        return new MeterSchema().counters("counter", "id", data.ids).build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(Registration.class.getSimpleName())
+            .threads(1)
+            .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,144 @@
+package metricsbench;
+
+import metricsbench.util.EpochCounter;
+import metricsbench.util.PullCollector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to collect {@value #N_SERIES} mostly idle counters: the full walk the apps' reporters do on every tick,
+ * against a pull collector that only materializes the series that changed.
+ */
+public class Reporting {
+
+    static final int N_SERIES = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        /** Counters incremented between two collections. */
+        @Param({"0", "100", "1000"})
+        int changed;
+
+        Random random;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            random = new Random(1234567891L);
+        }
+
+        int nextSeries() {
+            return random.nextInt(N_SERIES);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DropwizardState {
+
+        io.dropwizard.metrics5.MetricRegistry registry;
+        io.dropwizard.metrics5.Counter[] counters = new io.dropwizard.metrics5.Counter[N_SERIES];
+
+        @Setup(Level.Trial)
+        public void setup() {
+            registry = new io.dropwizard.metrics5.MetricRegistry();
+            for (int i = 0; i < N_SERIES; i++) {
+                counters[i] = registry.counter(
+                    new io.dropwizard.metrics5.MetricName("counter", Map.of("id", Integer.toString(i))));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class MicrometerState {
+
+        io.micrometer.core.instrument.MeterRegistry registry;
+        io.micrometer.core.instrument.Counter[] counters = new io.micrometer.core.instrument.Counter[N_SERIES];
+
+        @Setup(Level.Trial)
+        public void setup() {
+            registry = new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
+            for (int i = 0; i < N_SERIES; i++) {
+                counters[i] = registry.counter("counter", "id", Integer.toString(i));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PullState {
+
+        PullCollector collector;
+        EpochCounter[] counters = new EpochCounter[N_SERIES];
+        int[] indexes = new int[N_SERIES];
+        long[] values = new long[N_SERIES];
+
+        @Setup(Level.Trial)
+        public void setup() {
+            collector = new PullCollector();
+            for (int i = 0; i < N_SERIES; i++) {
+                counters[i] = collector.counter();
+            }
+        }
+    }
+
+    // Each benchmark first touches data.changed counters itself, at the same cost in every variant, rather than in a
+    // per-invocation setup whose timing overhead would swamp the microsecond-scale pull collection.
+
+    // Slf4jReporter pulls the same sorted map on every report.
+    @Benchmark
+    public void dropwizardFullWalk(DropwizardState state, Data data, Blackhole hole) {
+        for (int i = 0; i < data.changed; i++) {
+            state.counters[data.nextSeries()].inc();
+        }
+        for (io.dropwizard.metrics5.Counter c : state.registry.getCounters().values()) {
+            hole.consume(c.getCount());
+        }
+    }
+
+    // Mirrors Slf4jMeterRegistry.publish().
+    @Benchmark
+    public void micrometerFullWalk(MicrometerState state, Data data, Blackhole hole) {
+        for (int i = 0; i < data.changed; i++) {
+            state.counters[data.nextSeries()].increment();
+        }
+        for (io.micrometer.core.instrument.Meter m : state.registry.getMeters()) {
+            if (m instanceof io.micrometer.core.instrument.Counter) {
+                hole.consume(((io.micrometer.core.instrument.Counter) m).count());
+            }
+        }
+    }
+
+    @Benchmark
+    public int pullCollect(PullState state, Data data) {
+        for (int i = 0; i < data.changed; i++) {
+            state.counters[data.nextSeries()].inc();
+        }
+        return state.collector.collect(state.indexes, state.values);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(Reporting.class.getSimpleName())
+            .threads(1)
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .mode(Mode.AverageTime)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .build();
+        new Runner(opt).run();
+    }
+}
@@ -1,5 +1,7 @@
 package metricsbench.apps;
 
+import metricsbench.util.ContentionProbe;
+import metricsbench.util.Diagnostics;
 import metricsbench.util.Misc;
 import io.dropwizard.metrics5.Counter;
 import io.dropwizard.metrics5.MetricName;
@@ -32,7 +34,11 @@ public class DropwizardApp {
     }
 
     public static void main(String[] args) throws InterruptedException {
-        new DropwizardApp().run();
+        if (Diagnostics.ENABLED) {
+            new DropwizardApp().diagnose();
+        } else {
+            new DropwizardApp().run();
+        }
         Misc.printGarbageCollectionTime();
     }
 
@@ -55,6 +61,29 @@ public class DropwizardApp {
         reporter.stop();
     }
 
+    void diagnose() throws InterruptedException {
+        registry = new io.dropwizard.metrics5.MetricRegistry();
+        for (int i = 0; i < N_COUNTERS; i++) {
+            counters[i] = registry.counter(new MetricName("counter", Map.of("id", Integer.toString(i))));
+        }
+
+        Diagnostics.Affinity affinity = Diagnostics.affinity();
+        long iterations = Diagnostics.iterations();
+        long elapsed = Diagnostics.run(N_THREADS, thread -> {
+            for (long j = 0; j < iterations; j++) {
+                counters[affinity.next(thread, N_THREADS, N_COUNTERS)].inc();
+            }
+        });
+
+        ContentionProbe probe = new ContentionProbe(N_COUNTERS, Diagnostics.layout());
+        long probeElapsed = Diagnostics.run(N_THREADS, thread -> {
+            for (long j = 0; j < iterations; j++) {
+                probe.increment(affinity.next(thread, N_THREADS, N_COUNTERS));
+            }
+        });
+        Diagnostics.report("dropwizard", counters, N_THREADS, iterations, elapsed, probe, probeElapsed);
+    }
+
     Callable task = () -> {
         for (int j = 0; j < N_ITERATIONS; j++) {
             int i = ThreadLocalRandom.current().nextInt(N_COUNTERS);
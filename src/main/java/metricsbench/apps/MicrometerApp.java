@@ -1,5 +1,7 @@
 package metricsbench.apps;
 
+import metricsbench.util.ContentionProbe;
+import metricsbench.util.Diagnostics;
 import metricsbench.util.Misc;
 import metricsbench.util.Slf4jMeterRegistry;
 import io.micrometer.core.instrument.Counter;
@@ -23,12 +25,57 @@ public class MicrometerApp {
     private final Counter counters[] = new Counter[N_COUNTERS];
 
     public static void main(String[] args) throws InterruptedException {
-        new MicrometerApp().run();
+        if (Diagnostics.ENABLED) {
+            new MicrometerApp().diagnose();
+        } else {
+            new MicrometerApp().run();
+        }
         Misc.printGarbageCollectionTime();
     }
 
     void run() throws InterruptedException {
-        registry = new Slf4jMeterRegistry(new StepRegistryConfig() {
+        registry = newRegistry();
+
+        for (int i = 0; i < N_COUNTERS; i++) {
+            counters[i] = registry.counter("counter", "id", Integer.toString(i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(N_THREADS);
+        ArrayList<Callable<Boolean>> tasks = new ArrayList<>(N_THREADS);
+        for (int i = 0; i < N_THREADS; i++) {
+            tasks.add(task);
+        }
+        executor.invokeAll(tasks);
+        registry.close();
+        executor.shutdown();
+    }
+
+    void diagnose() throws InterruptedException {
+        registry = newRegistry();
+        for (int i = 0; i < N_COUNTERS; i++) {
+            counters[i] = registry.counter("counter", "id", Integer.toString(i));
+        }
+
+        Diagnostics.Affinity affinity = Diagnostics.affinity();
+        long iterations = Diagnostics.iterations();
+        long elapsed = Diagnostics.run(N_THREADS, thread -> {
+            for (long j = 0; j < iterations; j++) {
+                counters[affinity.next(thread, N_THREADS, N_COUNTERS)].increment();
+            }
+        });
+        registry.close();
+
+        ContentionProbe probe = new ContentionProbe(N_COUNTERS, Diagnostics.layout());
+        long probeElapsed = Diagnostics.run(N_THREADS, thread -> {
+            for (long j = 0; j < iterations; j++) {
+                probe.increment(affinity.next(thread, N_THREADS, N_COUNTERS));
+            }
+        });
+        Diagnostics.report("micrometer", counters, N_THREADS, iterations, elapsed, probe, probeElapsed);
+    }
+
+    private static io.micrometer.core.instrument.MeterRegistry newRegistry() {
+        return new Slf4jMeterRegistry(new StepRegistryConfig() {
             @Override
             public String prefix() {
                 return "foo";
@@ -44,19 +91,6 @@ public class MicrometerApp {
                 return Duration.ofSeconds(1L);
             }
         });
-
-        for (int i = 0; i < N_COUNTERS; i++) {
-            counters[i] = registry.counter("counter", "id", Integer.toString(i));
-        }
-
-        ExecutorService executor = Executors.newFixedThreadPool(N_THREADS);
-        ArrayList<Callable<Boolean>> tasks = new ArrayList<>(N_THREADS);
-        for (int i = 0; i < N_THREADS; i++) {
-            tasks.add(task);
-        }
-        executor.invokeAll(tasks);
-        registry.close();
-        executor.shutdown();
     }
 
     Callable task = () -> {
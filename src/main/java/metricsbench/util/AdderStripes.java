@@ -0,0 +1,68 @@
+package metricsbench.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads how far the {@link LongAdder} or {@link DoubleAdder} inside a library counter has striped. An adder only
+ * allocates cells after a CAS on its base value fails, and only grows them on further collisions, so the cell count
+ * is a per-counter contention indicator for counters whose CAS failures cannot be observed directly.
+ * <p>
+ * Reading the cells needs {@code --add-opens java.base/java.util.concurrent.atomic=ALL-UNNAMED}.
+ */
+public class AdderStripes {
+
+    /** Returned when the counter holds no adder or the cells cannot be read. */
+    public static final int UNKNOWN = -1;
+
+    private static final int MAX_DEPTH = 2;
+
+    /**
+     * @return the number of cells of the first adder found in the counter's fields (0 while it never contended), or
+     * {@link #UNKNOWN}.
+     */
+    public static int cells(Object counter) {
+        Object adder = findAdder(counter, MAX_DEPTH);
+        if (adder == null) {
+            return UNKNOWN;
+        }
+        try {
+            // LongAdder and DoubleAdder both extend the package-private Striped64, which holds the cells.
+            Field cells = adder.getClass().getSuperclass().getDeclaredField("cells");
+            cells.setAccessible(true);
+            Object value = cells.get(adder);
+            return value == null ? 0 : Array.getLength(value);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return UNKNOWN;
+        }
+    }
+
+    private static Object findAdder(Object o, int depth) {
+        if (o instanceof LongAdder || o instanceof DoubleAdder) {
+            return o;
+        }
+        if (o == null || depth == 0 || o.getClass().getName().startsWith("java.")) {
+            return null;
+        }
+        for (Class<?> c = o.getClass(); c != Object.class; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                if (Modifier.isStatic(f.getModifiers()) || f.getType().isPrimitive()) {
+                    continue;
+                }
+                try {
+                    f.setAccessible(true);
+                    Object adder = findAdder(f.get(o), depth - 1);
+                    if (adder != null) {
+                        return adder;
+                    }
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    // Not readable; keep looking in the other fields.
+                }
+            }
+        }
+        return null;
+    }
+}
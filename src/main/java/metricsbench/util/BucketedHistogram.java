@@ -0,0 +1,86 @@
+package metricsbench.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram with non-cumulative buckets over fixed upper bounds. Bucket {@code i} counts values {@code <= bounds[i]}
+ * that did not fit a lower bucket, and the last bucket counts everything above the highest bound.
+ * <p>
+ * {@link #recordAll(long[], int, int)} buckets a batch into a thread-local array first and then applies one atomic
+ * add per touched bucket, instead of one per value.
+ */
+public class BucketedHistogram {
+
+    private final long[] bounds;
+    private final AtomicLongArray counts;
+    private final LongAdder sum = new LongAdder();
+    private final ThreadLocal<long[]> scratch;
+
+    public BucketedHistogram(long[] bounds) {
+        this.bounds = bounds.clone();
+        Arrays.sort(this.bounds);
+        counts = new AtomicLongArray(this.bounds.length + 1);
+        scratch = ThreadLocal.withInitial(() -> new long[this.bounds.length + 1]);
+    }
+
+    public void update(long value) {
+        counts.getAndIncrement(bucket(value));
+        sum.add(value);
+    }
+
+    public void recordAll(long[] values) {
+        recordAll(values, 0, values.length);
+    }
+
+    public void recordAll(long[] values, int off, int len) {
+        Objects.checkFromIndexSize(off, len, values.length);
+        int end = off + len;
+
+        // Kept separate from the bucketing loop so the JIT can vectorize it.
+        long total = 0;
+        for (int i = off; i < end; i++) {
+            total += values[i];
+        }
+
+        long[] local = scratch.get();
+        for (int i = off; i < end; i++) {
+            local[bucket(values[i])]++;
+        }
+        for (int b = 0; b < local.length; b++) {
+            long n = local[b];
+            if (n != 0) {
+                counts.getAndAdd(b, n);
+                local[b] = 0;
+            }
+        }
+        sum.add(total);
+    }
+
+    public long count() {
+        long n = 0;
+        for (int b = 0; b < counts.length(); b++) {
+            n += counts.get(b);
+        }
+        return n;
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long[] bucketCounts() {
+        long[] snapshot = new long[counts.length()];
+        for (int b = 0; b < snapshot.length; b++) {
+            snapshot[b] = counts.get(b);
+        }
+        return snapshot;
+    }
+
+    private int bucket(long value) {
+        int i = Arrays.binarySearch(bounds, value);
+        return i < 0 ? -i - 1 : i;
+    }
+}
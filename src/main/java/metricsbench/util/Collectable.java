@@ -0,0 +1,12 @@
+package metricsbench.util;
+
+/**
+ * A series that can be pulled by a {@link PullCollector}. The change check must be cheap, so that idle series cost
+ * a single field read per collection and their values are never materialized.
+ */
+public interface Collectable {
+
+    boolean changedSince(long epoch);
+
+    long read();
+}
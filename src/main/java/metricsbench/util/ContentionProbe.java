@@ -0,0 +1,61 @@
+package metricsbench.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * CAS-loop counters laid out in one array, so neighbouring counters either share cache lines or are padded apart
+ * depending on the {@link Diagnostics.Layout}. Unlike the library counters, every increment reports how many of its
+ * compare-and-set attempts failed, and the failures are kept per counter, which makes contention directly measurable.
+ */
+public class ContentionProbe {
+
+    // Failure tallies are always padded apart, so recording them does not add false sharing of its own. Both arrays
+    // also start with a full padded stride, keeping counter 0 off the line with the array length that every access
+    // reads for its bounds check.
+    private static final int PAD = Diagnostics.Layout.PADDED.stride();
+
+    private final int nCounters;
+    private final AtomicLongArray cells;
+    private final AtomicLongArray failures;
+    private final int stride;
+
+    public ContentionProbe(int nCounters, Diagnostics.Layout layout) {
+        this.nCounters = nCounters;
+        stride = layout.stride();
+        cells = new AtomicLongArray(PAD + nCounters * stride);
+        failures = new AtomicLongArray(PAD + nCounters * PAD);
+    }
+
+    public int size() {
+        return nCounters;
+    }
+
+    /**
+     * @return the number of failed compare-and-set attempts before the increment succeeded.
+     */
+    public int increment(int counter) {
+        int index = PAD + counter * stride;
+        int failed = 0;
+        for (;;) {
+            long current = cells.get(index);
+            if (cells.compareAndSet(index, current, current + 1)) {
+                if (failed != 0) {
+                    failures.getAndAdd(PAD + counter * PAD, failed);
+                }
+                return failed;
+            }
+            failed++;
+        }
+    }
+
+    public long get(int counter) {
+        return cells.get(PAD + counter * stride);
+    }
+
+    /**
+     * @return the failed compare-and-set attempts summed over every increment of the counter.
+     */
+    public long failures(int counter) {
+        return failures.get(PAD + counter * PAD);
+    }
+}
@@ -0,0 +1,69 @@
+package metricsbench.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed set of counters addressed by index, with a batch increment that tallies a whole batch of indexes locally
+ * and then applies a single atomic add per touched counter.
+ */
+public class CounterArray {
+
+    private final AtomicLongArray cells;
+    private final ThreadLocal<long[]> scratch;
+
+    public CounterArray(int size) {
+        cells = new AtomicLongArray(size);
+        scratch = ThreadLocal.withInitial(() -> new long[size]);
+    }
+
+    public int size() {
+        return cells.length();
+    }
+
+    public long get(int index) {
+        return cells.get(index);
+    }
+
+    public void increment(int index) {
+        cells.getAndIncrement(index);
+    }
+
+    public void add(int index, long delta) {
+        cells.getAndAdd(index, delta);
+    }
+
+    public void incrementBy(int[] counterIndexes) {
+        incrementBy(counterIndexes, 0, counterIndexes.length);
+    }
+
+    public void incrementBy(int[] counterIndexes, int off, int len) {
+        long[] counts = scratch.get();
+        try {
+            tally(counterIndexes, off, len, counts);
+        } catch (RuntimeException e) {
+            // Don't leave a partial tally behind for the next batch on this thread.
+            Arrays.fill(counts, 0L);
+            throw e;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            long n = counts[i];
+            if (n != 0) {
+                cells.getAndAdd(i, n);
+                counts[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Adds one to {@code counts[idx]} for every index in the given range. The caller owns {@code counts} and is
+     * responsible for clearing it between batches.
+     */
+    public static void tally(int[] counterIndexes, int off, int len, long[] counts) {
+        Objects.checkFromIndexSize(off, len, counterIndexes.length);
+        for (int i = off, end = off + len; i < end; i++) {
+            counts[counterIndexes[i]]++;
+        }
+    }
+}
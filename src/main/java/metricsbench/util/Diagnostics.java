@@ -0,0 +1,175 @@
+package metricsbench.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Contention and false-sharing diagnostics for the counter apps, configured through system properties:
+ * <ul>
+ * <li>{@code metricsbench.diagnostics} - {@code true} to run the diagnostics instead of the endless app loop.</li>
+ * <li>{@code metricsbench.layout} - {@code unpadded} (default) or {@code padded}. Applies to the
+ * {@link ContentionProbe} only; where a library places its counters' cells is up to its allocations and the GC.</li>
+ * <li>{@code metricsbench.affinity} - {@code random} (default) or {@code partitioned}.</li>
+ * <li>{@code metricsbench.iterations} - increments per thread, 10 million by default.</li>
+ * </ul>
+ * The library counters' contention is read from their adders by {@link AdderStripes}, which needs
+ * {@code --add-opens java.base/java.util.concurrent.atomic=ALL-UNNAMED}.
+ */
+public class Diagnostics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("metricsbench.diagnostics");
+
+    private static final int WORST_COUNTERS = 8;
+
+    public enum Layout {
+        /** Counters allocated back to back, several to a cache line. */
+        UNPADDED(1),
+        /** 128 bytes between counters, so neither a shared line nor the adjacent-line prefetcher couples them. */
+        PADDED(16);
+
+        private final int stride;
+
+        Layout(int stride) {
+            this.stride = stride;
+        }
+
+        /** Distance between counters, in longs. */
+        int stride() {
+            return stride;
+        }
+    }
+
+    public enum Affinity {
+        /** Every thread increments any counter. */
+        RANDOM,
+        /** Every thread owns a contiguous block of counters and increments only those. */
+        PARTITIONED;
+
+        public int next(int thread, int nThreads, int nCounters) {
+            ThreadLocalRandom r = ThreadLocalRandom.current();
+            if (this == RANDOM) {
+                return r.nextInt(nCounters);
+            }
+            int block = Math.max(1, nCounters / nThreads);
+            return (thread * block + r.nextInt(block)) % nCounters;
+        }
+    }
+
+    public interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+
+    public static Layout layout() {
+        return Layout.valueOf(System.getProperty("metricsbench.layout", "unpadded").toUpperCase());
+    }
+
+    public static Affinity affinity() {
+        return Affinity.valueOf(System.getProperty("metricsbench.affinity", "random").toUpperCase());
+    }
+
+    public static long iterations() {
+        return Long.getLong("metricsbench.iterations", 10_000_000L);
+    }
+
+    /**
+     * Runs the task once on each of {@code nThreads} threads and waits for all of them.
+     *
+     * @return the elapsed wall-clock time in nanoseconds.
+     */
+    public static long run(int nThreads, ThreadTask task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        List<Callable<Void>> tasks = new ArrayList<>(nThreads);
+        for (int i = 0; i < nThreads; i++) {
+            int thread = i;
+            tasks.add(() -> {
+                task.run(thread);
+                return null;
+            });
+        }
+        long start = System.nanoTime();
+        List<Future<Void>> futures = executor.invokeAll(tasks);
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return elapsed;
+    }
+
+    /**
+     * Prints, on the same stream as {@link Misc#printGarbageCollectionTime()}:
+     * <ul>
+     * <li>the library counters' timing and how far their adders striped, with the most striped counters;</li>
+     * <li>the {@link ContentionProbe}'s timing and CAS failure rate, with the counters that failed most. The probe
+     * does not depend on the library; it is the baseline for the chosen layout and affinity.</li>
+     * </ul>
+     * Every "op" is one increment, and rates are over all threads' increments.
+     */
+    public static void report(String library, Object[] libraryCounters, int nThreads, long iterations,
+                              long elapsedNanos, ContentionProbe probe, long probeElapsedNanos) {
+        long ops = iterations * nThreads;
+        String config = " affinity=" + affinity() + " threads=" + nThreads;
+        System.err.printf("%s%s: %.2f ns/op%n", library, config, (double) elapsedNanos / ops);
+
+        int[] cells = new int[libraryCounters.length];
+        int contended = 0;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = AdderStripes.cells(libraryCounters[i]);
+            if (cells[i] == AdderStripes.UNKNOWN) {
+                System.err.printf("%s striping: unavailable, run with --add-opens "
+                                  + "java.base/java.util.concurrent.atomic=ALL-UNNAMED%n", library);
+                contended = -1;
+                break;
+            }
+            if (cells[i] > 0) {
+                contended++;
+            }
+        }
+        if (contended >= 0) {
+            System.err.printf("%s striping: %d of %d counters contended%n", library, contended, cells.length);
+            for (int c : worst(cells.length, i -> cells[i])) {
+                System.err.printf("  counter %d: %d cells%n", c, cells[c]);
+            }
+        }
+
+        long totalFailures = 0;
+        for (int i = 0; i < probe.size(); i++) {
+            totalFailures += probe.failures(i);
+        }
+        System.err.printf("baseline probe layout=%s%s: %.2f ns/op, %.4f CAS failures/op%n", layout(), config,
+                          (double) probeElapsedNanos / ops, (double) totalFailures / ops);
+        for (int c : worst(probe.size(), i -> failureRate(probe, i))) {
+            System.err.printf("  counter %d: %.4f CAS failures/op over %d ops%n", c, failureRate(probe, c), probe.get(c));
+        }
+    }
+
+    /**
+     * @return the indexes of the {@value #WORST_COUNTERS} counters with the highest score, highest first.
+     */
+    private static int[] worst(int nCounters, IntToDoubleFunction score) {
+        return IntStream.range(0, nCounters).boxed()
+            .sorted(Comparator.comparingDouble((Integer i) -> score.applyAsDouble(i)).reversed())
+            .limit(WORST_COUNTERS)
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    private static double failureRate(ContentionProbe probe, int counter) {
+        long ops = probe.get(counter);
+        return ops == 0 ? 0.0 : (double) probe.failures(counter) / ops;
+    }
+}
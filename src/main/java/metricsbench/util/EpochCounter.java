@@ -0,0 +1,49 @@
+package metricsbench.util;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter that remembers the latest collector epoch in which it was incremented. The stamp only ever moves forward,
+ * and it is only written when the epoch has advanced, so a hot counter does not keep invalidating its cache line once
+ * per increment.
+ */
+public class EpochCounter implements Collectable {
+
+    private static final AtomicLongFieldUpdater<EpochCounter> UPDATED_EPOCH =
+        AtomicLongFieldUpdater.newUpdater(EpochCounter.class, "updatedEpoch");
+
+    private final PullCollector collector;
+    private final LongAdder count = new LongAdder();
+    private volatile long updatedEpoch = -1L;
+
+    EpochCounter(PullCollector collector) {
+        this.collector = collector;
+    }
+
+    public void inc() {
+        inc(1L);
+    }
+
+    public void inc(long n) {
+        count.add(n);
+        long epoch = collector.epoch();
+        // A thread that read an old epoch before stalling must not drag the stamp back over a newer one.
+        long stamp;
+        while ((stamp = updatedEpoch) < epoch) {
+            if (UPDATED_EPOCH.compareAndSet(this, stamp, epoch)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public boolean changedSince(long epoch) {
+        return updatedEpoch >= epoch;
+    }
+
+    @Override
+    public long read() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,40 @@
+package metricsbench.util;
+
+import java.util.Map;
+
+/**
+ * Counters built from a {@link MeterSchema}. The index is immutable once built, so lookups take no locks. Hot paths
+ * should resolve an index once with {@link #indexOf(String, String...)} and then increment by index.
+ */
+public class MeterIndex {
+
+    private final String[] keys;
+    private final Map<String, Integer> indexes;
+    private final CounterArray counters;
+
+    MeterIndex(String[] keys, Map<String, Integer> indexes) {
+        this.keys = keys;
+        this.indexes = indexes;
+        this.counters = new CounterArray(keys.length);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public int indexOf(String name, String... tags) {
+        Integer index = indexes.get(MeterSchema.key(name, tags));
+        if (index == null) {
+            throw new IllegalArgumentException("Counter not declared: " + MeterSchema.key(name, tags));
+        }
+        return index;
+    }
+
+    public String key(int index) {
+        return keys[index];
+    }
+
+    public CounterArray counters() {
+        return counters;
+    }
+}
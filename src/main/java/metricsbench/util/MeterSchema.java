@@ -0,0 +1,89 @@
+package metricsbench.util;
+
+import io.dropwizard.metrics5.Counter;
+import io.dropwizard.metrics5.Metric;
+import io.dropwizard.metrics5.MetricName;
+import io.dropwizard.metrics5.MetricSet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A declared set of counters, built into a {@link MeterIndex} in one pass at startup instead of registering meters
+ * one at a time through a registry. Tags are given as key/value pairs and are part of the identity in declared order.
+ */
+public class MeterSchema {
+
+    private final List<String> names = new ArrayList<>();
+    private final List<String[]> tags = new ArrayList<>();
+
+    public MeterSchema counter(String name, String... tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be key/value pairs: " + name);
+        }
+        names.add(name);
+        this.tags.add(tags.clone());
+        return this;
+    }
+
+    /**
+     * Declares one counter per tag value, e.g. the {@code id} series of the apps.
+     */
+    public MeterSchema counters(String name, String tagKey, String... tagValues) {
+        for (String tagValue : tagValues) {
+            counter(name, tagKey, tagValue);
+        }
+        return this;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public MeterIndex build() {
+        int size = names.size();
+        String[] keys = new String[size];
+        // Sized up front so the map never rehashes while it is filled.
+        Map<String, Integer> indexes = new HashMap<>((int) (size / 0.75f) + 1);
+        for (int i = 0; i < size; i++) {
+            keys[i] = key(names.get(i), tags.get(i));
+            if (indexes.putIfAbsent(keys[i], i) != null) {
+                throw new IllegalArgumentException("Counter declared twice: " + keys[i]);
+            }
+        }
+        return new MeterIndex(keys, indexes);
+    }
+
+    /**
+     * The schema as Dropwizard counters, for {@link io.dropwizard.metrics5.MetricRegistry#registerAll(MetricSet)}.
+     */
+    public MetricSet toMetricSet() {
+        Map<MetricName, Metric> metrics = new LinkedHashMap<>((int) (names.size() / 0.75f) + 1);
+        for (int i = 0; i < names.size(); i++) {
+            String[] t = tags.get(i);
+            Map<String, String> tagMap = new HashMap<>();
+            for (int j = 0; j < t.length; j += 2) {
+                tagMap.put(t[j], t[j + 1]);
+            }
+            metrics.put(new MetricName(names.get(i), tagMap), new Counter());
+        }
+        return () -> metrics;
+    }
+
+    static String key(String name, String[] tags) {
+        if (tags.length == 0) {
+            return name;
+        }
+        StringBuilder key = new StringBuilder(name).append('{');
+        for (int j = 0; j < tags.length; j += 2) {
+            if (j > 0) {
+                key.append(',');
+            }
+            key.append(tags[j]).append('=').append(tags[j + 1]);
+        }
+        return key.append('}').toString();
+    }
+}
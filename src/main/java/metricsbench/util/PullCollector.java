@@ -0,0 +1,83 @@
+package metricsbench.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pull-model collection: instead of a reporter walking and materializing every meter on a timer, the caller asks for
+ * the series that changed and gets their values in its own primitive buffers.
+ * <p>
+ * Each collection closes the current epoch. An increment racing with that can stamp the closed epoch after the
+ * collector has already looked at its series, so a collection checks every series stamped since the epoch closed by
+ * the <em>previous</em> collection. Series found that way whose value equals the one last reported are skipped, so each
+ * change is reported once; the look-back only costs a {@link Collectable#read()} of series touched in the previous
+ * epoch.
+ * <p>
+ * This covers an increment that races with one collection. An increment whose thread stalls between adding to the
+ * count and stamping the epoch across two or more collections is still missed; its value shows up the next time the
+ * series is touched and reported.
+ */
+public class PullCollector {
+
+    private static final long NEVER_REPORTED = Long.MIN_VALUE;
+
+    private final List<Collectable> series = new ArrayList<>();
+    private long[] lastReported = new long[0];
+    private volatile long epoch;
+    private long lastClosed;
+
+    long epoch() {
+        return epoch;
+    }
+
+    public EpochCounter counter() {
+        EpochCounter counter = new EpochCounter(this);
+        register(counter);
+        return counter;
+    }
+
+    /**
+     * @return the index under which the series is reported by {@link #collect(int[], long[])}.
+     */
+    public synchronized int register(Collectable collectable) {
+        int index = series.size();
+        series.add(collectable);
+        if (index == lastReported.length) {
+            lastReported = Arrays.copyOf(lastReported, Math.max(16, index * 2));
+            Arrays.fill(lastReported, index, lastReported.length, NEVER_REPORTED);
+        }
+        return index;
+    }
+
+    public synchronized int size() {
+        return series.size();
+    }
+
+    /**
+     * Writes the index and value of every series that changed since it was last reported into {@code indexes} and
+     * {@code values}, which must hold at least {@link #size()} entries.
+     *
+     * @return the number of series written.
+     */
+    public synchronized int collect(int[] indexes, long[] values) {
+        long since = lastClosed;
+        lastClosed = epoch;
+        epoch = lastClosed + 1;
+
+        int n = 0;
+        for (int i = 0, size = series.size(); i < size; i++) {
+            Collectable c = series.get(i);
+            if (c.changedSince(since)) {
+                long value = c.read();
+                if (value != lastReported[i]) {
+                    lastReported[i] = value;
+                    indexes[n] = i;
+                    values[n] = value;
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+}
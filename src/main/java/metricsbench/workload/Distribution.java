@@ -0,0 +1,72 @@
+package metricsbench.workload;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+
+/**
+ * Value distributions for pregenerated workloads. {@link #CAPTURED} replays values loaded from the file named by the
+ * {@value #CAPTURED_FILE_PROPERTY} system property (see {@link Workload#map(Path)} for the format); when running
+ * under JMH pass it to the forks with {@code -jvmArgsAppend}.
+ */
+public enum Distribution {
+
+    /** The original Histograms workload: median around 7, with a moderate right tail. */
+    LOGNORMAL {
+        @Override
+        long[] generate(int size, long seed) {
+            return sample(size, seed, r -> Math.round(Math.exp(2.0 + r.nextGaussian())));
+        }
+    },
+
+    /** Mostly fast values with a slow second mode, e.g. cache hits and misses. */
+    BIMODAL {
+        @Override
+        long[] generate(int size, long seed) {
+            return sample(size, seed, r -> {
+                double mu = r.nextDouble() < 0.9 ? 2.0 : 7.0;
+                return Math.round(Math.exp(mu + 0.5 * r.nextGaussian()));
+            });
+        }
+    },
+
+    /** Heavy tail with the classic 80/20 shape parameter; rare values span many orders of magnitude. */
+    PARETO {
+        @Override
+        long[] generate(int size, long seed) {
+            return sample(size, seed, r -> Math.round(5.0 * Math.pow(1.0 - r.nextDouble(), -1.0 / 1.16)));
+        }
+    },
+
+    CONSTANT {
+        @Override
+        long[] generate(int size, long seed) {
+            return sample(size, seed, r -> 7L);
+        }
+    },
+
+    CAPTURED {
+        @Override
+        long[] generate(int size, long seed) {
+            String file = System.getProperty(CAPTURED_FILE_PROPERTY);
+            if (file == null) {
+                throw new IllegalStateException(CAPTURED_FILE_PROPERTY + " is not set");
+            }
+            return Workload.load(Paths.get(file), size);
+        }
+    };
+
+    public static final String CAPTURED_FILE_PROPERTY = "metricsbench.workload.file";
+
+    abstract long[] generate(int size, long seed);
+
+    private static long[] sample(int size, long seed, ToLongFunction<Random> sampler) {
+        Random r = new Random(seed);
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = sampler.applyAsLong(r);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,99 @@
+package metricsbench.workload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A pregenerated stream of primitive values that cycles without boxing or iterator logic. The size is a power of two
+ * so wrapping around is a single mask.
+ */
+public class Workload {
+
+    public static final int DEFAULT_SIZE = 1 << 20;
+    public static final long DEFAULT_SEED = 1234567891L;
+
+    private final long[] values;
+    private final int mask;
+    private int cursor;
+
+    private Workload(long[] values) {
+        this.values = values;
+        this.mask = values.length - 1;
+    }
+
+    public static Workload of(Distribution distribution) {
+        return of(distribution, DEFAULT_SIZE, DEFAULT_SEED);
+    }
+
+    public static Workload of(Distribution distribution, int size, long seed) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Workload size must be a power of two: " + size);
+        }
+        return new Workload(distribution.generate(size, seed));
+    }
+
+    public long next() {
+        return values[cursor++ & mask];
+    }
+
+    /**
+     * Returns the offset of the next {@code len} values in {@link #values()}. {@code len} must divide the size.
+     */
+    public int nextBatch(int len) {
+        int off = cursor & mask;
+        cursor = off + len;
+        return off;
+    }
+
+    public void rewind() {
+        cursor = 0;
+    }
+
+    public long[] values() {
+        return values;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Memory-maps a file of captured values, stored as consecutive big-endian 64-bit integers (the format written by
+     * {@link java.io.DataOutputStream#writeLong(long)}). The buffer stays off-heap. Only the first 2 GB are mapped.
+     */
+    public static LongBuffer map(Path file) {
+        return map(file, Integer.MAX_VALUE / 8);
+    }
+
+    /**
+     * Like {@link #map(Path)}, but maps at most the first {@code maxValues} values, so captures larger than the 2 GB
+     * a single mapping can cover still load.
+     */
+    public static LongBuffer map(Path file, int maxValues) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long bytes = Math.min(channel.size() & ~7L, (long) maxValues * 8);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes).asLongBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copies {@code size} values out of a captured file, repeating it if the file holds fewer.
+     */
+    static long[] load(Path file, int size) {
+        LongBuffer buffer = map(file, size);
+        if (!buffer.hasRemaining()) {
+            throw new IllegalArgumentException("No values in " + file);
+        }
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = buffer.get(i % buffer.limit());
+        }
+        return values;
+    }
+}